@@ -1,7 +1,7 @@
-import core.Continuum;
-import core.Time;
-import tools.ParticleGenerator;
+import tools.FrameRasterizer;
 import tools.PostProcessor;
+import tools.SimulationJob;
+import tools.VideoRenderer;
 
 import java.io.IOException;
 import java.util.Locale;
@@ -10,36 +10,57 @@ public class GasDiffusion {
     private final static String N = "N";
     private final static String L = "L";
     private final static String EPOCH = "epoch";
+    private final static String SEED = "seed";
     private final static String OUTPUT_FILE = "output";
+    private final static String VIDEO_FILE = "video";
+    private final static String OUTPUT_EVERY = "outputEvery";
+    private final static String PROGRESS_INTERVAL = "progress";
+    private final static String EQUILIBRIUM_TOLERANCE = "eqTol";
+    private final static String EQUILIBRIUM_WINDOW = "eqWindow";
+    private final static String EQUILIBRIUM_HOLD = "eqHold";
 
 
     public static void main(String[] args) {
-        int n = Integer.parseInt(System.getProperty(N));
-        double l = Double.parseDouble(System.getProperty(L));
-        int epoch = Integer.parseInt(System.getProperty(EPOCH));
-        String outputFile = System.getProperty(OUTPUT_FILE);
-        double particleRadius = 0.0015;
-        double side = 0.09;
-        double speed = 0.01;
+        String equilibriumTolerance = System.getProperty(EQUILIBRIUM_TOLERANCE);
+        SimulationJob job = new SimulationJob(
+                "",
+                Integer.parseInt(System.getProperty(N)),
+                Double.parseDouble(System.getProperty(L)),
+                Integer.parseInt(System.getProperty(EPOCH)),
+                Long.parseLong(System.getProperty(SEED, String.valueOf(System.currentTimeMillis()))),
+                System.getProperty(OUTPUT_FILE),
+                Integer.parseInt(System.getProperty(OUTPUT_EVERY, "100")),
+                Long.parseLong(System.getProperty(PROGRESS_INTERVAL, "1000")),
+                equilibriumTolerance == null ? null : Double.parseDouble(equilibriumTolerance),
+                Double.parseDouble(System.getProperty(EQUILIBRIUM_WINDOW, "5")),
+                Integer.parseInt(System.getProperty(EQUILIBRIUM_HOLD, "10"))
+        );
+        String videoFile = System.getProperty(VIDEO_FILE);
 
-        Continuum continuum = new Continuum(side, l, n, epoch, particleRadius);
-        ParticleGenerator.generate(n, side , continuum::addParticle, speed, particleRadius);
         Locale.setDefault(Locale.ENGLISH);
-        long init = System.currentTimeMillis();
-        try (PostProcessor postProcessor = new PostProcessor(outputFile)) {
-            postProcessor.processEpoch(new Time(0, continuum.getParticles()));
-            int i = 0;
-            for(Time t : continuum){
-                if(i++%100 == 0) {
-                    System.out.printf("Epoch i=%f\n", t.time());
-                    postProcessor.processEpoch(t);
-                }
-            }
+        PostProcessor.clearImpulseFiles();
+        SimulationJob.Result result;
+        try (VideoRenderer videoRenderer = videoFile == null ? null : createVideoRenderer(videoFile, job.l())) {
+            result = job.run(PostProcessor::processImpulse,
+                    videoRenderer == null ? null : videoRenderer::processEpoch,
+                    progress -> System.out.println(progress.describe()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        System.out.println(System.currentTimeMillis() - init);
-
+        if (job.eqTol() != null) {
+            if (result.equilibriumTime() >= 0)
+                System.out.printf("Equilibrium reached at t=%f\n", result.equilibriumTime());
+            else
+                System.out.println("Equilibrium not reached");
+        }
+        System.out.printf("seed=%d\n", job.seed());
+        System.out.println(result.elapsedMs());
+    }
 
+    private static VideoRenderer createVideoRenderer(String videoFile, double l) {
+        System.setProperty("java.awt.headless", "true");
+        FrameRasterizer rasterizer = new FrameRasterizer(1200, 500, SimulationJob.SIDE, l, 20);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        return new VideoRenderer(rasterizer, VideoRenderer.Format.RAW, videoFile, 24, threads);
     }
 }
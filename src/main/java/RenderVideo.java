@@ -0,0 +1,45 @@
+import tools.FrameRasterizer;
+import tools.SimulationJob;
+import tools.TrajectoryReader;
+import tools.VideoRenderer;
+
+import java.io.IOException;
+import java.util.Locale;
+
+public class RenderVideo {
+    private final static String INPUT_FILE = "input";
+    private final static String L = "L";
+    private final static String OUTPUT = "video";
+    private final static String FORMAT = "format";
+    private final static String FPS = "fps";
+    private final static String THREADS = "threads";
+    private final static String WIDTH = "width";
+    private final static String HEIGHT = "height";
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Locale.setDefault(Locale.ENGLISH);
+        String inputFile = System.getProperty(INPUT_FILE);
+        double l = Double.parseDouble(System.getProperty(L));
+        String output = System.getProperty(OUTPUT, "output.mp4");
+        VideoRenderer.Format format = VideoRenderer.Format.valueOf(System.getProperty(FORMAT, "raw").toUpperCase());
+        int fps = Integer.parseInt(System.getProperty(FPS, "24"));
+        int threads = Integer.parseInt(System.getProperty(THREADS, String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int width = Integer.parseInt(System.getProperty(WIDTH, "1200"));
+        int height = Integer.parseInt(System.getProperty(HEIGHT, "500"));
+
+        FrameRasterizer rasterizer = new FrameRasterizer(width, height, SimulationJob.SIDE, l, 20);
+        long init = System.currentTimeMillis();
+        int frames = 0;
+        try (TrajectoryReader reader = new TrajectoryReader(inputFile);
+             VideoRenderer renderer = new VideoRenderer(rasterizer, format, output, fps, threads)) {
+            while (reader.nextFrame()) {
+                renderer.processFrame(reader.getTime(), reader.getXs(), reader.getYs(), reader.getRadii(), reader.getCount());
+                frames++;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        System.out.printf("%d frames in %d ms\n", frames, System.currentTimeMillis() - init);
+    }
+}
@@ -0,0 +1,161 @@
+import tools.JsonLine;
+import tools.Progress;
+import tools.SimulationJob;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Long running JVM that runs simulation jobs received as JSON lines, one per line, e.g.
+// {"id":"a","N":200,"L":0.03,"epoch":500,"seed":1,"output":"none"}
+// Jobs come from stdin, or from local socket connections when a port is given, and their progress and
+// results are written back as JSON lines on the same channel. Keeping the JVM alive keeps Continuum hot in the JIT.
+public class SimulationServer {
+    private final static String PORT = "port";
+    private final static String THREADS = "threads";
+    private final static String QUEUE_SIZE = "queue";
+
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ENGLISH);
+        String port = System.getProperty(PORT);
+        int threads = Integer.parseInt(System.getProperty(THREADS, String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int queueSize = Integer.parseInt(System.getProperty(QUEUE_SIZE, String.valueOf(4 * threads)));
+
+        // A full queue blocks the reader instead of rejecting the job, so clients get backpressure
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), (job, pool) -> {
+            try {
+                pool.getQueue().put(job);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing job", e);
+            }
+        });
+
+        if (port == null) {
+            serve(new InputStreamReader(System.in, StandardCharsets.UTF_8), new PrintWriter(System.out), executor);
+            executor.shutdown();
+            return;
+        }
+        try (ServerSocket serverSocket = new ServerSocket(Integer.parseInt(port), 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + serverSocket.getLocalSocketAddress());
+            while (true) {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().start(() -> {
+                    try (socket) {
+                        serve(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                                new PrintWriter(socket.getOutputStream()), executor);
+                    } catch (IOException e) {
+                        System.err.println("Error on client connection: " + e.getMessage());
+                    }
+                });
+            }
+        }
+    }
+
+    // Reads jobs until the input ends and returns once all of them were answered
+    private static void serve(Reader input, PrintWriter writer, ThreadPoolExecutor executor) throws IOException {
+        Consumer<String> sink = line -> {
+            synchronized (writer) {
+                writer.println(line);
+                writer.flush();
+            }
+        };
+        Phaser pending = new Phaser(1);
+        BufferedReader reader = new BufferedReader(input);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank())
+                continue;
+            SimulationJob job;
+            try {
+                job = SimulationJob.fromJson(line);
+            } catch (IllegalArgumentException e) {
+                sink.accept(error(idOf(line), e));
+                continue;
+            }
+            sink.accept(queued(job.id()));
+            pending.register();
+            executor.execute(() -> {
+                try {
+                    run(job, sink);
+                } catch (RuntimeException e) {
+                    sink.accept(error(job.id(), e));
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
+        pending.arriveAndAwaitAdvance();
+    }
+
+    private static void run(SimulationJob job, Consumer<String> sink) {
+        double[] wallImpulses = new double[4];
+        SimulationJob.Result result = job.run((impulse, time, wallId) -> wallImpulses[wallId] += impulse, null,
+                progress -> sink.accept(progress(job.id(), progress)));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", job.id());
+        values.put("status", "done");
+        values.put("seed", job.seed());
+        values.put("t", result.time());
+        values.put("events", result.events());
+        values.put("elapsedMs", result.elapsedMs());
+        for (int wallId = 0; wallId < wallImpulses.length; wallId++)
+            values.put("impulse" + wallId, wallImpulses[wallId]);
+        if (job.eqTol() != null)
+            values.put("equilibriumTime", result.equilibriumTime() >= 0 ? result.equilibriumTime() : null);
+        sink.accept(JsonLine.write(values));
+    }
+
+    private static String progress(String id, Progress progress) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", id);
+        values.put("status", "progress");
+        values.put("t", progress.time());
+        values.put("epoch", progress.maxEpoch());
+        values.put("events", progress.events());
+        values.put("rate", progress.eventRate());
+        values.put("elapsed", progress.elapsed());
+        values.put("eta", Double.isNaN(progress.eta()) ? null : progress.eta());
+        return JsonLine.write(values);
+    }
+
+    // Best effort, so rejected jobs can still be matched by the client
+    private static String idOf(String line) {
+        try {
+            return JsonLine.parse(line).get("id");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String queued(String id) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", id);
+        values.put("status", "queued");
+        return JsonLine.write(values);
+    }
+
+    private static String error(String id, Exception e) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", id);
+        values.put("status", "error");
+        values.put("message", String.valueOf(e.getMessage()));
+        return JsonLine.write(values);
+    }
+}
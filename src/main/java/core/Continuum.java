@@ -3,6 +3,8 @@ package core;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 
 public class Continuum implements Iterable<Time> {
@@ -11,6 +13,8 @@ public class Continuum implements Iterable<Time> {
     private final int maxEpoch;
     private final List<Particle> particles;
     private final EventHandler eventHandler;
+    private EquilibriumDetector equilibriumDetector;
+    private ImpulseListener impulseListener = (impulse, time, wallId) -> {};
 
     private final double particleRadius;
     private final double rectRightWall;
@@ -18,6 +22,12 @@ public class Continuum implements Iterable<Time> {
     private final double rectLowerWall;
 
     public Continuum(double sqSize, double L, int particleCount, int maxEpoch, double fixedParticleRadius) {
+        this(sqSize, L, particleCount, maxEpoch, fixedParticleRadius, new PriorityQueue<>());
+    }
+
+    // Runs the simulation on the given event queue, see EventHandler
+    public Continuum(double sqSize, double L, int particleCount, int maxEpoch, double fixedParticleRadius,
+                     Queue<EventType> eventQueue) {
         if (sqSize <= 0 || L <= 0 || maxEpoch <= 0)
             throw new IllegalArgumentException("rectSize, L, maxEpoch must be positive");
         if (L > sqSize)
@@ -26,7 +36,7 @@ public class Continuum implements Iterable<Time> {
         epoch = 0;
         this.maxEpoch = maxEpoch;
         this.particles = new ArrayList<>();
-        this.eventHandler = new EventHandler(particleCount);
+        this.eventHandler = new EventHandler(particleCount, eventQueue);
 
         this.particleRadius = fixedParticleRadius;
         this.rectRightWall = 2 * sqSize;
@@ -53,6 +63,23 @@ public class Continuum implements Iterable<Time> {
         particles.add(particle);
     }
 
+    // Unlike addParticle, this allows particles going through the slit and around its corners
+    public boolean contains(Particle particle, double tolerance) {
+        double x = particle.getX();
+        double y = particle.getY();
+        double r = particle.getRadius() - tolerance;
+        if (x - r < 0 || x + r > rectRightWall || y - r < 0 || y + r > sqSize)
+            return false;
+        if (x > sqSize)
+            return y - r >= rectLowerWall && y + r <= rectUpperWall;
+        if (x + r <= sqSize)
+            return true;
+        // Overlapping the slit: must be inside it or clear of both corners
+        if (y > rectUpperWall || y < rectLowerWall)
+            return false;
+        return Math.hypot(x - sqSize, y - rectUpperWall) >= r && Math.hypot(x - sqSize, y - rectLowerWall) >= r;
+    }
+
     @Override
     public Iterator<Time> iterator() {
         return new TimeIterator();
@@ -63,11 +90,13 @@ public class Continuum implements Iterable<Time> {
             for (Particle particle : particles) {
                 findParticleEvent(particle);
             }
+            if (equilibriumDetector != null)
+                equilibriumDetector.start(epoch, particles);
         }
 
         @Override
         public boolean hasNext() {
-            return epoch < maxEpoch;
+            return epoch < maxEpoch && (equilibriumDetector == null || !equilibriumDetector.isReached());
         }
 
         @Override
@@ -77,8 +106,10 @@ public class Continuum implements Iterable<Time> {
             for (Particle particle : particles) {
                 particle.move(deltaT);
             }
-            event.performEvent(sqSize);
+            event.performEvent(sqSize, impulseListener);
             epoch = event.getT();
+            if (equilibriumDetector != null)
+                equilibriumDetector.onEvent(event, epoch, particles);
 
             Set<Particle> mustRevalidate;
             if (event.hasP2()) {
@@ -133,7 +164,8 @@ public class Continuum implements Iterable<Time> {
         if (parRightEdge < sqSize) {
             double tSqRightWall = ParticleURM.RIGHT.calcTime(p, iniTime, sqSize);
             double yCenterAtT = p.getY() + p.getSpeedY() * (tSqRightWall - iniTime);
-            if (yCenterAtT - particleRadius < rectLowerWall || yCenterAtT + particleRadius >= rectUpperWall) {
+            // Otherwise the particle goes through the slit, or touches one of its corners first
+            if (yCenterAtT < rectLowerWall || yCenterAtT > rectUpperWall) {
                 return new EventType(tSqRightWall, p, WallCollisionType.HORIZONTAL_COLLISION);
             }
         }
@@ -169,18 +201,14 @@ public class Continuum implements Iterable<Time> {
     }
 
     private EventType getNextCornerCollision(Particle p, double iniTime) {
-        double deltaT = 0.00001; // to ensure the event never happens at the same time
-        double upperCornerCollision = calculateCornerCollision(p, iniTime, rectUpperWall) + deltaT;
-        double lowerCornerCollision = calculateCornerCollision(p, iniTime, rectLowerWall) + deltaT;
-        if (upperCornerCollision >= epoch && lowerCornerCollision < epoch)
-            return new EventType(upperCornerCollision, p, WallCollisionType.VERTICAL_COLLISION);
-        if (lowerCornerCollision >= epoch && upperCornerCollision < epoch)
-            return new EventType(lowerCornerCollision, p, WallCollisionType.VERTICAL_COLLISION);
-        if (upperCornerCollision < epoch && lowerCornerCollision < epoch)
-            return new EventType(Double.MAX_VALUE, p, WallCollisionType.VERTICAL_COLLISION);
-        return new EventType(Math.min(lowerCornerCollision, upperCornerCollision), p, WallCollisionType.VERTICAL_COLLISION);
+        double upperCornerCollision = calculateCornerCollision(p, iniTime, rectUpperWall);
+        double lowerCornerCollision = calculateCornerCollision(p, iniTime, rectLowerWall);
+        if (upperCornerCollision <= lowerCornerCollision)
+            return new EventType(upperCornerCollision, p, sqSize, rectUpperWall);
+        return new EventType(lowerCornerCollision, p, sqSize, rectLowerWall);
     }
 
+    // First time the particle touches the corner while approaching it, Double.MAX_VALUE if it never does
     private double calculateCornerCollision(Particle p, double iniTime, double rectWallPos) {
         double dx = p.getX() - sqSize;
         double dy = p.getY() - rectWallPos;
@@ -188,18 +216,22 @@ public class Continuum implements Iterable<Time> {
         double b = 2 * (dx * p.getSpeedX() + dy * p.getSpeedY());
         double c = Math.pow(dx, 2) + Math.pow(dy, 2) - Math.pow(particleRadius, 2);
 
-        double disc = Math.sqrt(Math.pow(b, 2) - 4 * a * c);
-        if (Double.isNaN(disc)) {
-            return -1;
-        }
-        double t1 = (-b + disc) / (2 * a) + iniTime;
-        double t2 = (-b - disc) / (2 * a) + iniTime;
+        if (b >= 0) // moving away from the corner, also right after bouncing off it
+            return Double.MAX_VALUE;
+        double disc = Math.pow(b, 2) - 4 * a * c;
+        if (disc < 0)
+            return Double.MAX_VALUE;
+        double t = (-b - Math.sqrt(disc)) / (2 * a);
+        return iniTime + Math.max(t, 0); // t < 0 only from rounding when already in contact
+    }
 
-        if (t1 > 0) {
-            if (t2 < 0) return t1;
-            return Math.min(t1, t2);
-        }
-        return t2;
+    public void setImpulseListener(ImpulseListener impulseListener) {
+        this.impulseListener = impulseListener;
+    }
+
+    // Ends the iteration early once the detector reports the steady state
+    public void setEquilibriumDetector(EquilibriumDetector equilibriumDetector) {
+        this.equilibriumDetector = equilibriumDetector;
     }
 
     public List<Particle> getParticles() { return particles; }
@@ -0,0 +1,137 @@
+package core;
+
+import java.util.List;
+
+// Online stopping criterion for Continuum.
+// Splits the simulated time in fixed windows and, for each one, accumulates the time weighted fraction of particles
+// inside the square and the impulse on the square and rectangle walls. A single window holds too few wall hits to
+// be compared on its own, so the criterion uses the running totals of the last holdWindows windows: the steady state
+// is reached once, over that span, the fraction matches the one expected from the accessible areas and both
+// pressures agree, within the tolerance.
+public class EquilibriumDetector {
+    private final double sqSize;
+    private final double expectedFraction;
+    private final double sqPerimeter;
+    private final double rectPerimeter;
+    private final double window;
+    private final double tolerance;
+    private final int holdWindows;
+
+    // Per window totals, as ring buffers indexed by closedWindows % holdWindows
+    private final double[] windowStarts;
+    private final double[] windowDurations;
+    private final double[] windowFractions;
+    private final double[] windowSqImpulses;
+    private final double[] windowRectImpulses;
+    private int closedWindows;
+
+    private double windowStart;
+    private double lastTime;
+    private double currentFraction;
+    private double weightedFraction;
+    private double sqImpulse;
+    private double rectImpulse;
+
+    private double equilibriumTime = -1;
+
+    public EquilibriumDetector(double sqSize, double L, double particleRadius, double window, double tolerance,
+                               int holdWindows) {
+        if (sqSize <= 0 || L <= 0 || particleRadius <= 0 || window <= 0 || tolerance <= 0 || holdWindows <= 0)
+            throw new IllegalArgumentException("sqSize, L, particleRadius, window, tolerance, holdWindows must be positive");
+        if (L <= 2 * particleRadius)
+            throw new IllegalArgumentException("L must be greater than the particle diameter");
+        this.sqSize = sqSize;
+        // Areas the particle centres can reach, a radius away from the walls. Centres inside the slit with
+        // x < sqSize count for the square, the strip of width particleRadius between its inner walls.
+        double slitHeight = L - 2 * particleRadius;
+        double sqArea = Math.pow(sqSize - 2 * particleRadius, 2) + particleRadius * slitHeight;
+        double rectArea = (sqSize - particleRadius) * slitHeight;
+        this.expectedFraction = sqArea / (sqArea + rectArea);
+        this.sqPerimeter = 3 * sqSize + (sqSize - L);
+        this.rectPerimeter = 2 * sqSize + L;
+        this.window = window;
+        this.tolerance = tolerance;
+        this.holdWindows = holdWindows;
+        this.windowStarts = new double[holdWindows];
+        this.windowDurations = new double[holdWindows];
+        this.windowFractions = new double[holdWindows];
+        this.windowSqImpulses = new double[holdWindows];
+        this.windowRectImpulses = new double[holdWindows];
+    }
+
+    void start(double time, List<Particle> particles) {
+        windowStart = time;
+        lastTime = time;
+        currentFraction = squareFraction(particles);
+    }
+
+    // Called after the event was performed, with every particle already moved to event time
+    void onEvent(EventType event, double time, List<Particle> particles) {
+        weightedFraction += currentFraction * (time - lastTime);
+        currentFraction = squareFraction(particles);
+        lastTime = time;
+
+        double impulse = event.getWallImpulse();
+        if (impulse > 0) {
+            if (event.getP1().getX() < sqSize)
+                sqImpulse += impulse;
+            else
+                rectImpulse += impulse;
+        }
+
+        if (time - windowStart >= window)
+            closeWindow(time);
+    }
+
+    private double squareFraction(List<Particle> particles) {
+        int inSquare = 0;
+        for (Particle particle : particles) {
+            if (particle.getX() < sqSize)
+                inSquare++;
+        }
+        return (double) inSquare / particles.size();
+    }
+
+    private void closeWindow(double time) {
+        int slot = closedWindows++ % holdWindows;
+        windowStarts[slot] = windowStart;
+        windowDurations[slot] = time - windowStart;
+        windowFractions[slot] = weightedFraction;
+        windowSqImpulses[slot] = sqImpulse;
+        windowRectImpulses[slot] = rectImpulse;
+
+        windowStart = time;
+        weightedFraction = 0;
+        sqImpulse = 0;
+        rectImpulse = 0;
+
+        if (closedWindows >= holdWindows && equilibriumTime < 0 && isSteady())
+            equilibriumTime = windowStarts[closedWindows % holdWindows]; // start of the oldest window held
+    }
+
+    private boolean isSteady() {
+        double duration = 0, fraction = 0, sqTotal = 0, rectTotal = 0;
+        for (int i = 0; i < holdWindows; i++) {
+            duration += windowDurations[i];
+            fraction += windowFractions[i];
+            sqTotal += windowSqImpulses[i];
+            rectTotal += windowRectImpulses[i];
+        }
+        fraction /= duration;
+        double sqPressure = sqTotal / (duration * sqPerimeter);
+        double rectPressure = rectTotal / (duration * rectPerimeter);
+        double meanPressure = (sqPressure + rectPressure) / 2;
+        return Math.abs(fraction - expectedFraction) <= tolerance * expectedFraction
+                && meanPressure > 0
+                && Math.abs(sqPressure - rectPressure) <= tolerance * meanPressure;
+    }
+
+    public boolean isReached() {
+        return equilibriumTime >= 0;
+    }
+
+    // Start of the windows that confirmed the steady state, or -1 if it was not reached
+    public double getEquilibriumTime() {
+        return equilibriumTime;
+    }
+}
@@ -7,7 +7,12 @@ public class EventHandler {
     private final List<List<EventType>> particleEvents;
 
     public EventHandler(int particleCount) {
-        this.queue = new PriorityQueue<>();
+        this(particleCount, new PriorityQueue<>());
+    }
+
+    // The queue must be empty and poll its events in time order
+    public EventHandler(int particleCount, Queue<EventType> queue) {
+        this.queue = queue;
         this.particleEvents = new ArrayList<>();
         for (int i = 0; i < particleCount; i++) {
             particleEvents.add(new ArrayList<>());
@@ -5,6 +5,8 @@ public class EventType implements Comparable<EventType> {
     private final Particle p1;
     private final Particle p2;
     private final WallCollisionType wallCollisionType;
+    private final double cornerX;
+    private final double cornerY;
     private boolean isValid;
 
     // Wall collision
@@ -15,6 +17,21 @@ public class EventType implements Comparable<EventType> {
         this.p1 = p;
         this.wallCollisionType = wallCollisionType;
         this.p2 = null;
+        cornerX = Double.NaN;
+        cornerY = Double.NaN;
+        isValid = true;
+    }
+
+    // Corner collision, the particle bounces off the point (cornerX, cornerY)
+    public EventType(double t, Particle p, double cornerX, double cornerY) {
+        if (p == null)
+            throw new NullPointerException();
+        this.t = t;
+        this.p1 = p;
+        this.p2 = null;
+        wallCollisionType = null;
+        this.cornerX = cornerX;
+        this.cornerY = cornerY;
         isValid = true;
     }
 
@@ -27,15 +44,27 @@ public class EventType implements Comparable<EventType> {
         this.p1 = p1;
         this.p2 = p2;
         wallCollisionType = null;
+        cornerX = Double.NaN;
+        cornerY = Double.NaN;
         isValid = true;
     }
 
-    public void performEvent(double squareSize) {
+    public void performEvent(double squareSize, ImpulseListener impulseListener) {
         if (!isValid)
             throw new IllegalStateException("The event is no longer valid");
 
         if (wallCollisionType != null) { // wall collision
-            wallCollisionType.updateParticle(p1,squareSize,t);
+            wallCollisionType.updateParticle(p1,squareSize,t,impulseListener);
+            return;
+        }
+        if (isCornerCollision()) { // reflects the speed along the corner to centre direction
+            double distance = Math.hypot(p1.getX() - cornerX, p1.getY() - cornerY);
+            double normalX = (p1.getX() - cornerX) / distance;
+            double normalY = (p1.getY() - cornerY) / distance;
+            double normalSpeed = p1.getSpeedX() * normalX + p1.getSpeedY() * normalY;
+            impulseListener.onImpulse(2 * Math.abs(normalSpeed), t, 1);
+            p1.updateSpeedX(p1.getSpeedX() - 2 * normalSpeed * normalX);
+            p1.updateSpeedY(p1.getSpeedY() - 2 * normalSpeed * normalY);
             return;
         }
         if (p2 != null) { // particle collision
@@ -77,6 +106,19 @@ public class EventType implements Comparable<EventType> {
         return p2 != null;
     }
 
+    public boolean isCornerCollision() {
+        return !Double.isNaN(cornerX);
+    }
+
+    public double getWallImpulse() {
+        if (isCornerCollision()) {
+            double normalSpeed = (p1.getSpeedX() * (p1.getX() - cornerX) + p1.getSpeedY() * (p1.getY() - cornerY))
+                    / Math.hypot(p1.getX() - cornerX, p1.getY() - cornerY);
+            return 2 * Math.abs(normalSpeed);
+        }
+        return wallCollisionType == null ? 0 : wallCollisionType.impulse(p1);
+    }
+
     @Override
     public int compareTo(EventType o) {
         return Double.compare(t, o.t);
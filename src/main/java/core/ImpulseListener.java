@@ -0,0 +1,6 @@
+package core;
+
+@FunctionalInterface
+public interface ImpulseListener {
+    void onImpulse(double impulse, double time, int wallId);
+}
@@ -1,14 +1,14 @@
 package core;
 
 public class Particle {
-    private static int globalId = 1;
     private final int id;
     private double x, y;
     private double speedx, speedy;
     private final double radius;
 
-    public Particle(double x, double y, double direction, double speed, double radius) {
-        this.id = globalId++;
+    // Ids must go from 1 to the particle count of the Continuum the particle is added to
+    public Particle(int id, double x, double y, double direction, double speed, double radius) {
+        this.id = id;
         this.x = x;
         this.y = y;
         this.speedx = speed * Math.cos(direction);
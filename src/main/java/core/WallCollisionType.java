@@ -1,29 +1,38 @@
 package core;
 
-import tools.PostProcessor;
-
-import java.util.List;
-
 public enum WallCollisionType {
     VERTICAL_COLLISION {
         @Override
-        public void updateParticle(Particle particle, double sqrSize, double time) {
+        public void updateParticle(Particle particle, double sqrSize, double time, ImpulseListener listener) {
             int wallId=particle.getX()>sqrSize?2:0;
-            PostProcessor.processImpulse(2*Math.abs(particle.getSpeedY()),time,wallId);
+            listener.onImpulse(impulse(particle),time,wallId);
             particle.updateSpeedY(-particle.getSpeedY());
         }
+
+        @Override
+        public double impulse(Particle particle) {
+            return 2*Math.abs(particle.getSpeedY());
+        }
     },
     HORIZONTAL_COLLISION {
         @Override
-        public void updateParticle(Particle particle, double sqrSize, double time) {
+        public void updateParticle(Particle particle, double sqrSize, double time, ImpulseListener listener) {
             double x=particle.getX();
             double rad=particle.getRadius();
             int wallId=x>sqrSize+2*rad?3:x<sqrSize-2*rad?0:1;
-            PostProcessor.processImpulse(2*Math.abs(particle.getSpeedX()),time,wallId);
+            listener.onImpulse(impulse(particle),time,wallId);
             particle.updateSpeedX(-particle.getSpeedX());
         }
+
+        @Override
+        public double impulse(Particle particle) {
+            return 2*Math.abs(particle.getSpeedX());
+        }
     }
     ;
 
-    public abstract void updateParticle(Particle particle, double sqrSize, double time);
+    public abstract void updateParticle(Particle particle, double sqrSize, double time, ImpulseListener listener);
+
+    // Same before and after the bounce, since only the sign of the speed changes
+    public abstract double impulse(Particle particle);
 }
@@ -0,0 +1,114 @@
+package tools;
+
+import java.util.Arrays;
+
+// Draws the square + rectangle enclosure and the particles straight into an int[] RGB buffer,
+// using the same layout as animator/main.js
+public class FrameRasterizer {
+    private static final int BACKGROUND = 0xFFFFFF;
+    private static final int FOREGROUND = 0x000000;
+    private static final int WALL_WIDTH = 2;
+
+    private final int width;
+    private final int height;
+    private final double boardSize;
+    private final double scale;
+    private final double offsetX;
+    private final double offsetY;
+    private final int[] background;
+
+    public FrameRasterizer(int width, int height, double boardSize, double L, int margin) {
+        if (width <= 0 || height <= 0 || boardSize <= 0 || L <= 0)
+            throw new IllegalArgumentException("width, height, boardSize, L must be positive");
+        this.width = width;
+        this.height = height;
+        this.boardSize = boardSize;
+        // The square and the rectangle side by side are 2 * boardSize wide and boardSize high
+        this.scale = Math.min((width - 2.0 * margin) / (2 * boardSize), (height - 2.0 * margin) / boardSize);
+        if (scale <= 0)
+            throw new IllegalArgumentException("The margin does not leave room for the frame");
+        this.offsetX = (width - 2 * boardSize * scale) / 2;
+        this.offsetY = (height - boardSize * scale) / 2;
+        this.background = new int[width * height];
+        drawStaticBorders(L);
+    }
+
+    private void drawStaticBorders(double L) {
+        Arrays.fill(background, BACKGROUND);
+        double halfSq = boardSize / 2;
+        double rectUpper = halfSq + L / 2;
+        double rectLower = halfSq - L / 2;
+        double rectRight = 2 * boardSize;
+
+        // Square without its right side
+        drawLine(0, 0, boardSize, 0);
+        drawLine(0, boardSize, boardSize, boardSize);
+        drawLine(0, 0, 0, boardSize);
+        // Rectangle without its left side
+        drawLine(boardSize, rectUpper, rectRight, rectUpper);
+        drawLine(boardSize, rectLower, rectRight, rectLower);
+        drawLine(rectRight, rectLower, rectRight, rectUpper);
+        // Joints between both
+        drawLine(boardSize, rectUpper, boardSize, boardSize);
+        drawLine(boardSize, 0, boardSize, rectLower);
+    }
+
+    // Only axis-aligned lines are needed for the enclosure
+    private void drawLine(double x1, double y1, double x2, double y2) {
+        int px1 = (int) Math.round(mapX(Math.min(x1, x2)));
+        int px2 = (int) Math.round(mapX(Math.max(x1, x2)));
+        int py1 = (int) Math.round(mapY(Math.max(y1, y2)));
+        int py2 = (int) Math.round(mapY(Math.min(y1, y2)));
+        int half = WALL_WIDTH / 2;
+        int fromY = Math.max(0, py1 - half);
+        int toY = Math.min(height, py2 + half);
+        int fromX = Math.max(0, px1 - half);
+        int toX = Math.min(width, px2 + half);
+        for (int py = fromY; py < toY; py++) {
+            Arrays.fill(background, py * width + fromX, py * width + toX, FOREGROUND);
+        }
+    }
+
+    public void rasterize(int[] pixels, double[] xs, double[] ys, double[] radii, int count) {
+        if (pixels.length != background.length)
+            throw new IllegalArgumentException("Pixel buffer does not match the frame size");
+        System.arraycopy(background, 0, pixels, 0, background.length);
+        for (int i = 0; i < count; i++) {
+            fillCircle(pixels, mapX(xs[i]), mapY(ys[i]), radii[i] * scale);
+        }
+    }
+
+    private void fillCircle(int[] pixels, double cx, double cy, double r) {
+        double r2 = r * r;
+        int minY = Math.max(0, (int) Math.floor(cy - r));
+        int maxY = Math.min(height - 1, (int) Math.ceil(cy + r));
+        int minX = Math.max(0, (int) Math.floor(cx - r));
+        int maxX = Math.min(width - 1, (int) Math.ceil(cx + r));
+        for (int py = minY; py <= maxY; py++) {
+            double dy = py + 0.5 - cy;
+            double dy2 = dy * dy;
+            int row = py * width;
+            for (int px = minX; px <= maxX; px++) {
+                double dx = px + 0.5 - cx;
+                if (dx * dx + dy2 <= r2)
+                    pixels[row + px] = FOREGROUND;
+            }
+        }
+    }
+
+    private double mapX(double x) {
+        return offsetX + x * scale;
+    }
+
+    private double mapY(double y) {
+        return offsetY + (boardSize - y) * scale;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,161 @@
+package tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Minimal reader/writer for single line, flat JSON objects: string, number, boolean and null values only
+public class JsonLine {
+
+    public static Map<String, String> parse(String line) {
+        Parser parser = new Parser(line);
+        parser.skipWhitespace();
+        Map<String, String> values = parser.parseObject();
+        parser.skipWhitespace();
+        if (!parser.atEnd())
+            throw new IllegalArgumentException("Unexpected content after JSON object");
+        return values;
+    }
+
+    public static String write(Map<String, ?> values) {
+        StringBuilder sb = new StringBuilder("{");
+        values.forEach((key, value) -> {
+            if (sb.length() > 1)
+                sb.append(',');
+            appendString(sb, key);
+            sb.append(':');
+            if (value == null || value instanceof Number || value instanceof Boolean)
+                sb.append(value);
+            else
+                appendString(sb, value.toString());
+        });
+        return sb.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        sb.append("\\u%04x".formatted((int) c));
+                    else
+                        sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Map<String, String> parseObject() {
+            Map<String, String> values = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            do {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                values.put(key, parseValue());
+                skipWhitespace();
+            } while (tryConsume(','));
+            expect('}');
+            return values;
+        }
+
+        private String parseValue() {
+            char c = peek();
+            if (c == '"')
+                return parseString();
+            if (c == '{' || c == '[')
+                throw new IllegalArgumentException("Nested values are not supported");
+            int start = pos;
+            while (!atEnd() && ",} \t".indexOf(s.charAt(pos)) < 0)
+                pos++;
+            String literal = s.substring(start, pos);
+            if (literal.isEmpty())
+                throw new IllegalArgumentException("Missing value at " + start);
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (atEnd())
+                    throw new IllegalArgumentException("Unterminated string");
+                char c = s.charAt(pos++);
+                if (c == '"')
+                    return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (atEnd())
+                    throw new IllegalArgumentException("Unterminated string");
+                char escaped = s.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > s.length())
+                            throw new IllegalArgumentException("Invalid unicode escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+        }
+
+        private char peek() {
+            if (atEnd())
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            return s.charAt(pos);
+        }
+
+        private void expect(char c) {
+            if (peek() != c)
+                throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+            pos++;
+        }
+
+        private boolean tryConsume(char c) {
+            if (!atEnd() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(s.charAt(pos)))
+                pos++;
+        }
+
+        boolean atEnd() {
+            return pos >= s.length();
+        }
+    }
+}
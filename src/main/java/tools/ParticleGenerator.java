@@ -6,15 +6,17 @@ import java.util.*;
 import java.util.function.Consumer;
 
 public class ParticleGenerator {
+    private static final int MAX_ATTEMPTS = 1_000_000;
 
     public static void generate(
             int particleNumber,
             double gridSize,
             Consumer<Particle> consumer,
             double speed,
-            double radius) {
+            double radius,
+            long seed) {
         Random random = new Random();
-        random.setSeed(System.currentTimeMillis());
+        random.setSeed(seed);
         double x;
         double y;
         double direction;
@@ -27,13 +29,16 @@ public class ParticleGenerator {
             int cj = (int) Math.floor(y / cellSize);
             Cell cell = new Cell(ci,cj);
             direction = random.nextDouble(-Math.PI, Math.PI);
+            int attempts = 0;
             while(grid.checkCollision(x,y,cell)){
+                if (++attempts > MAX_ATTEMPTS)
+                    throw new IllegalStateException("Could not fit particle " + (i + 1) + " without overlaps");
                 x = random.nextDouble() * (gridSize - 2 * radius) + radius;
                 y = random.nextDouble() * (gridSize - 2 * radius) + radius;
                 cell.setI((int) Math.floor(x / cellSize));
                 cell.setJ((int) Math.floor(y / cellSize));
             }
-            Particle particle = new Particle(x, y, direction, speed, radius);
+            Particle particle = new Particle(i + 1, x, y, direction, speed, radius);
             grid.addParticle(particle, cell);
             consumer.accept(particle);
         }
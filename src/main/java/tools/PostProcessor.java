@@ -17,7 +17,7 @@ public class PostProcessor implements Closeable {
     private static final String OUTPUT_FILE_NAME = "dynamicOutput.txt";
     private final BufferedWriter writer;
 
-    static {
+    public static void clearImpulseFiles() {
         for (int wallId = 0; wallId <= 3; wallId++) {
             Path path = Paths.get("impulse_" + wallId + ".csv");
             try {
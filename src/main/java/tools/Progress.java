@@ -0,0 +1,11 @@
+package tools;
+
+// Sample taken by the ProgressReporter, eta is NaN while the simulated time is not advancing
+public record Progress(double time, double maxEpoch, long events, double eventRate, double elapsed, double eta) {
+
+    public String describe() {
+        return "t=%.3f/%.0f (%.1f%%) events=%d rate=%.0f ev/s elapsed=%.1fs eta=%s".formatted(
+                time, maxEpoch, 100 * time / maxEpoch, events, eventRate, elapsed,
+                Double.isNaN(eta) ? "?" : "%.1fs".formatted(eta));
+    }
+}
@@ -0,0 +1,68 @@
+package tools;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Reports simulation progress from a background thread at a fixed wall-clock interval.
+// The simulation thread only publishes two counters per event, so it never blocks on the console or a socket.
+public class ProgressReporter implements Closeable {
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong simTimeBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final double maxEpoch;
+    private final Consumer<Progress> sink;
+    private final ScheduledExecutorService scheduler;
+    private final long startNanos;
+    private long lastNanos;
+    private long lastEvents;
+    private double lastSimTime;
+
+    public ProgressReporter(double maxEpoch, long intervalMillis, Consumer<Progress> sink) {
+        if (maxEpoch <= 0 || intervalMillis <= 0)
+            throw new IllegalArgumentException("maxEpoch, intervalMillis must be positive");
+        this.maxEpoch = maxEpoch;
+        this.sink = sink;
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Called from the simulation thread only, hence the plain read before each release write
+    public void update(double simTime) {
+        events.setRelease(events.getPlain() + 1);
+        simTimeBits.setRelease(Double.doubleToRawLongBits(simTime));
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        long currentEvents = events.getAcquire();
+        double simTime = Double.longBitsToDouble(simTimeBits.getAcquire());
+        double elapsed = (now - lastNanos) / 1e9;
+        double eventRate = (currentEvents - lastEvents) / elapsed;
+        double simRate = (simTime - lastSimTime) / elapsed;
+        double eta = simRate > 0 ? Math.max(0, maxEpoch - simTime) / simRate : Double.NaN;
+        sink.accept(new Progress(simTime, maxEpoch, currentEvents, eventRate, (now - startNanos) / 1e9, eta));
+        lastNanos = now;
+        lastEvents = currentEvents;
+        lastSimTime = simTime;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            if (scheduler.awaitTermination(1, TimeUnit.SECONDS))
+                report();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package tools;
+
+import core.Continuum;
+import core.EquilibriumDetector;
+import core.ImpulseListener;
+import core.Time;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// A single simulation run, as requested through the GasDiffusion properties or a SimulationServer JSON line.
+// The specification is validated on construction, so a bad job is rejected before it is queued.
+public record SimulationJob(
+        String id,
+        int n,
+        double l,
+        int epoch,
+        long seed,
+        String output,
+        int outputEvery,
+        long progressMillis,
+        Double eqTol,
+        double eqWindow,
+        int eqHold) {
+
+    public static final double PARTICLE_RADIUS = 0.0015;
+    public static final double SIDE = 0.09;
+    public static final double SPEED = 0.01;
+    public static final String NO_OUTPUT = "none";
+    // Oler's bound on how many discs of the particle diameter fit in the square, no N above it can ever be placed.
+    // Below it a jammed random placement fails in ParticleGenerator instead.
+    public static final int MAX_PARTICLES = maxParticles(SIDE - 2 * PARTICLE_RADIUS, 2 * PARTICLE_RADIUS);
+
+    public record Result(double time, long events, long elapsedMs, double equilibriumTime) {
+    }
+
+    public SimulationJob {
+        if (n <= 0 || n > MAX_PARTICLES)
+            throw new IllegalArgumentException("N must be between 1 and " + MAX_PARTICLES);
+        if (l <= 2 * PARTICLE_RADIUS || l > SIDE)
+            throw new IllegalArgumentException("L must be greater than the particle diameter and at most " + SIDE);
+        if (epoch <= 0)
+            throw new IllegalArgumentException("epoch must be positive");
+        if (outputEvery <= 0)
+            throw new IllegalArgumentException("outputEvery must be positive");
+        if (eqTol != null && (eqTol <= 0 || eqWindow <= 0 || eqHold <= 0))
+            throw new IllegalArgumentException("eqTol, eqWindow, eqHold must be positive");
+    }
+
+    public static SimulationJob fromJson(String line) {
+        Map<String, String> values = JsonLine.parse(line);
+        String n = values.get("N");
+        String l = values.get("L");
+        String epoch = values.get("epoch");
+        if (n == null || l == null || epoch == null)
+            throw new IllegalArgumentException("N, L, epoch are required");
+        String eqTol = values.get("eqTol");
+        return new SimulationJob(
+                values.getOrDefault("id", ""),
+                Integer.parseInt(n),
+                Double.parseDouble(l),
+                Integer.parseInt(epoch),
+                Long.parseLong(values.getOrDefault("seed", String.valueOf(System.nanoTime()))),
+                Objects.requireNonNullElse(values.get("output"), NO_OUTPUT),
+                Integer.parseInt(values.getOrDefault("outputEvery", "100")),
+                Long.parseLong(values.getOrDefault("progress", "1000")),
+                eqTol == null ? null : Double.parseDouble(eqTol),
+                Double.parseDouble(values.getOrDefault("eqWindow", "5")),
+                Integer.parseInt(values.getOrDefault("eqHold", "10"))
+        );
+    }
+
+    // Discs of the given diameter with their centres in a square of the given side
+    private static int maxParticles(double side, double diameter) {
+        return (int) (2 / Math.sqrt(3) * side * side / (diameter * diameter) + 2 * side / diameter + 1);
+    }
+
+    // Every outputEvery events the state goes to the output file and to the frameConsumer, when present
+    public Result run(ImpulseListener impulseListener, Consumer<Time> frameConsumer, Consumer<Progress> progressSink) {
+        long init = System.nanoTime();
+        Continuum continuum = new Continuum(SIDE, l, n, epoch, PARTICLE_RADIUS);
+        ParticleGenerator.generate(n, SIDE, continuum::addParticle, SPEED, PARTICLE_RADIUS, seed);
+        continuum.setImpulseListener(impulseListener);
+        EquilibriumDetector detector = null;
+        if (eqTol != null) {
+            detector = new EquilibriumDetector(SIDE, l, PARTICLE_RADIUS, eqWindow, eqTol, eqHold);
+            continuum.setEquilibriumDetector(detector);
+        }
+
+        long events = 0;
+        double time = 0;
+        try (PostProcessor postProcessor = NO_OUTPUT.equals(output) ? null : new PostProcessor(output);
+             ProgressReporter progress = progressMillis <= 0 || progressSink == null
+                     ? null : new ProgressReporter(epoch, progressMillis, progressSink)) {
+            Time initial = new Time(0, continuum.getParticles());
+            if (postProcessor != null)
+                postProcessor.processEpoch(initial);
+            if (frameConsumer != null)
+                frameConsumer.accept(initial);
+            for (Time t : continuum) {
+                time = t.time();
+                if (progress != null)
+                    progress.update(time);
+                if (events++ % outputEvery == 0) {
+                    if (postProcessor != null)
+                        postProcessor.processEpoch(t);
+                    if (frameConsumer != null)
+                        frameConsumer.accept(t);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing on output file", e);
+        }
+        double equilibriumTime = detector != null && detector.isReached() ? detector.getEquilibriumTime() : -1;
+        return new Result(time, events, (System.nanoTime() - init) / 1_000_000, equilibriumTime);
+    }
+}
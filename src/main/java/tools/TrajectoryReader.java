@@ -0,0 +1,99 @@
+package tools;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Reads the output written by PostProcessor: a time line followed by one "x,y,vx,vy,r" line per particle.
+// The coordinate arrays are reused between frames, so consumers must copy what they keep.
+public class TrajectoryReader implements Closeable {
+    private final BufferedReader reader;
+    private String pendingTimeLine;
+    private double time;
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private double[] radii = new double[16];
+    private int count;
+
+    public TrajectoryReader(String inputFile) {
+        try {
+            reader = new BufferedReader(new FileReader(inputFile), 1 << 16);
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening file");
+        }
+    }
+
+    public boolean nextFrame() {
+        try {
+            String line = pendingTimeLine != null ? pendingTimeLine : nextNonEmptyLine();
+            pendingTimeLine = null;
+            if (line == null)
+                return false;
+            time = Double.parseDouble(line);
+            count = 0;
+            while ((line = nextNonEmptyLine()) != null) {
+                if (line.indexOf(',') < 0) {
+                    pendingTimeLine = line;
+                    break;
+                }
+                parseParticle(line);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading input file");
+        }
+    }
+
+    private String nextNonEmptyLine() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty())
+                return line;
+        }
+        return null;
+    }
+
+    // Parses "x,y,vx,vy,r" without splitting into intermediate strings
+    private void parseParticle(String line) {
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * count);
+            ys = Arrays.copyOf(ys, 2 * count);
+            radii = Arrays.copyOf(radii, 2 * count);
+        }
+        int c1 = line.indexOf(',');
+        int c2 = line.indexOf(',', c1 + 1);
+        int c4 = line.lastIndexOf(',');
+        xs[count] = Double.parseDouble(line.substring(0, c1));
+        ys[count] = Double.parseDouble(line.substring(c1 + 1, c2));
+        radii[count] = Double.parseDouble(line.substring(c4 + 1));
+        count++;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public double[] getXs() {
+        return xs;
+    }
+
+    public double[] getYs() {
+        return ys;
+    }
+
+    public double[] getRadii() {
+        return radii;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,237 @@
+package tools;
+
+import core.Particle;
+import core.Time;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Renders frames on a thread pool and streams them, in order, to an ffmpeg process over its stdin,
+// either as raw rgb24 frames or as PNG images (smaller pipe traffic at the cost of compressing each frame).
+// Frame buffers are pooled, so the number of frames in flight is bounded by the pool size.
+public class VideoRenderer implements Closeable {
+    public enum Format {RAW, PNG}
+
+    private final FrameRasterizer rasterizer;
+    private final Format format;
+    private final Process encoder;
+    private final OutputStream encoderInput;
+    private final ExecutorService pool;
+    private final Deque<Slot> freeSlots;
+    private final Deque<Future<Slot>> pending;
+
+    public VideoRenderer(FrameRasterizer rasterizer, Format format, String outputFile, int fps, int threads) {
+        this.rasterizer = rasterizer;
+        this.format = format;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "frame-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.freeSlots = new ArrayDeque<>();
+        for (int i = 0; i < 2 * threads; i++) {
+            freeSlots.push(new Slot(rasterizer.getWidth(), rasterizer.getHeight(), format));
+        }
+        this.pending = new ArrayDeque<>();
+
+        List<String> command = new ArrayList<>(List.of("ffmpeg", "-y", "-loglevel", "error"));
+        if (format == Format.PNG) {
+            command.addAll(List.of("-f", "image2pipe", "-c:v", "png"));
+        } else {
+            command.addAll(List.of("-f", "rawvideo", "-pix_fmt", "rgb24",
+                    "-s", rasterizer.getWidth() + "x" + rasterizer.getHeight()));
+        }
+        command.addAll(List.of(
+                "-r", String.valueOf(fps),
+                "-i", "-",
+                "-c:v", "libx264",
+                "-crf", "20",
+                "-preset", "fast",
+                "-pix_fmt", "yuv420p",
+                outputFile));
+        try {
+            this.encoder = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            this.encoderInput = new BufferedOutputStream(encoder.getOutputStream(), 1 << 20);
+        } catch (IOException e) {
+            pool.shutdownNow();
+            throw new RuntimeException("Error starting ffmpeg", e);
+        }
+    }
+
+    public void processEpoch(Time time) {
+        List<Particle> particles = time.particles();
+        Slot slot = acquireSlot(particles.size());
+        for (int i = 0; i < particles.size(); i++) {
+            Particle p = particles.get(i);
+            slot.xs[i] = p.getX();
+            slot.ys[i] = p.getY();
+            slot.radii[i] = p.getRadius();
+        }
+        submit(slot, time.time(), particles.size());
+    }
+
+    public void processFrame(double time, double[] xs, double[] ys, double[] radii, int count) {
+        Slot slot = acquireSlot(count);
+        System.arraycopy(xs, 0, slot.xs, 0, count);
+        System.arraycopy(ys, 0, slot.ys, 0, count);
+        System.arraycopy(radii, 0, slot.radii, 0, count);
+        submit(slot, time, count);
+    }
+
+    private Slot acquireSlot(int count) {
+        while (freeSlots.isEmpty()) {
+            writeNext();
+        }
+        Slot slot = freeSlots.pop();
+        slot.ensureCapacity(count);
+        return slot;
+    }
+
+    private void submit(Slot slot, double time, int count) {
+        pending.add(pool.submit(() -> {
+            rasterizer.rasterize(slot.pixels, slot.xs, slot.ys, slot.radii, count);
+            drawLabel(slot.image, time);
+            slot.encode();
+            return slot;
+        }));
+    }
+
+    private static void drawLabel(BufferedImage image, double time) {
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 15));
+        g.drawString("t = %.2f s".formatted(time), 5, 20);
+        g.dispose();
+    }
+
+    // Waits for the oldest frame, hands it to the encoder and returns its buffers to the pool
+    private void writeNext() {
+        Future<Slot> future = pending.poll();
+        if (future == null)
+            throw new IllegalStateException("No frame being rendered");
+        try {
+            Slot slot = future.get();
+            slot.writeTo(encoderInput);
+            freeSlots.push(slot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while rendering", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error rendering frame", e.getCause());
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing frame to encoder", e);
+        }
+    }
+
+    // On any failure ffmpeg is killed, since the video could not be completed, and the first error is thrown
+    @Override
+    public void close() throws IOException {
+        Exception failure = null;
+        try {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        if (failure == null)
+            pool.shutdown();
+        else
+            pool.shutdownNow();
+        try {
+            encoderInput.close();
+        } catch (IOException e) {
+            if (failure == null)
+                failure = e;
+            else
+                failure.addSuppressed(e);
+        }
+        if (failure != null) {
+            encoder.destroy();
+            if (failure instanceof IOException e)
+                throw e;
+            throw (RuntimeException) failure;
+        }
+
+        int exitCode;
+        try {
+            exitCode = encoder.waitFor();
+        } catch (InterruptedException e) {
+            encoder.destroy();
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("Interrupted while waiting for ffmpeg").initCause(e);
+        }
+        if (exitCode != 0)
+            throw new IOException("ffmpeg exited with code " + exitCode);
+    }
+
+    private static class Slot {
+        private final Format format;
+        private final BufferedImage image;
+        private final int[] pixels;
+        private final byte[] rgb;
+        private final ByteArrayOutputStream png;
+        private double[] xs = new double[0];
+        private double[] ys = new double[0];
+        private double[] radii = new double[0];
+
+        Slot(int width, int height, Format format) {
+            this.format = format;
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.rgb = format == Format.RAW ? new byte[pixels.length * 3] : null;
+            this.png = format == Format.PNG ? new ByteArrayOutputStream() : null;
+        }
+
+        void ensureCapacity(int count) {
+            if (xs.length < count) {
+                xs = new double[count];
+                ys = new double[count];
+                radii = new double[count];
+            }
+        }
+
+        // Runs on the render threads, so the conversion or compression is done in parallel too
+        void encode() throws IOException {
+            if (format == Format.PNG) {
+                png.reset();
+                ImageIO.write(image, "png", png);
+                return;
+            }
+            for (int i = 0, j = 0; i < pixels.length; i++) {
+                int px = pixels[i];
+                rgb[j++] = (byte) (px >> 16);
+                rgb[j++] = (byte) (px >> 8);
+                rgb[j++] = (byte) px;
+            }
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            if (format == Format.PNG)
+                png.writeTo(out);
+            else
+                out.write(rgb);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tools.ParticleGenerator;
+import tools.SimulationJob;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Correctness and scaling checks for the simulation engines, one per event queue.
+// Fixed seed runs must conserve kinetic energy and never let particles overlap nor leave the enclosure, every engine
+// must agree with the first one on the collision statistics, and the events per second are reported as N grows.
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ContinuumTest {
+    private static final int N = 150;
+    private static final double L = 0.03;
+    private static final int EVENTS = 20000;
+    private static final int SEEDS = 5;
+    private static final int CHECK_EVERY = 10;
+    private static final int[] BENCH_N = {50, 100, 200, 400};
+    private static final int BENCH_EVENTS = 5000;
+
+    private static final double ENERGY_TOLERANCE = 1e-9;
+    private static final double OVERLAP_TOLERANCE = 1e-9;
+    // Continuum delays rectangle wall events by 0.00001s, so particles may go that far past those walls
+    private static final double WALL_TOLERANCE = 1e-6;
+    private static final double STATISTICS_TOLERANCE = 0.1;
+
+    record Engine(String name, Supplier<Queue<EventType>> queue) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private record RunResult(long events, double time, double impulse, long nanos, double maxEnergyDrift,
+                             int overlaps, int escapes) {
+        double eventRate() {
+            return events / time;
+        }
+
+        double pressure() {
+            return impulse / time;
+        }
+    }
+
+    // Every engine variant to compare, the first one is the reference for the statistical comparison
+    private static final List<Engine> ENGINES = List.of(
+            new Engine("heap", PriorityQueue::new),
+            new Engine("tree", TreeEventQueue::new)
+    );
+
+    private final Map<Engine, RunResult[]> results = new HashMap<>();
+
+    static List<Engine> engines() {
+        return ENGINES;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    void conservesEnergy(Engine engine) {
+        RunResult[] runs = resultsOf(engine);
+        for (int seed = 0; seed < SEEDS; seed++) {
+            assertEquals(EVENTS, runs[seed].events, "seed " + seed);
+            assertTrue(runs[seed].maxEnergyDrift <= ENERGY_TOLERANCE,
+                    "seed " + seed + " energy drift " + runs[seed].maxEnergyDrift);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    void keepsParticlesApartAndInside(Engine engine) {
+        RunResult[] runs = resultsOf(engine);
+        for (int seed = 0; seed < SEEDS; seed++) {
+            assertEquals(0, runs[seed].overlaps, "seed " + seed + " overlaps");
+            assertEquals(0, runs[seed].escapes, "seed " + seed + " escapes");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    void agreesWithReferenceEngine(Engine engine) {
+        RunResult[] reference = resultsOf(ENGINES.get(0));
+        RunResult[] runs = resultsOf(engine);
+        double rate = mean(runs, RunResult::eventRate);
+        double pressure = mean(runs, RunResult::pressure);
+        System.out.printf("%s mean events/t=%.3f mean impulse/t=%.6f\n", engine, rate, pressure);
+        assertTrue(relativeDiff(rate, mean(reference, RunResult::eventRate)) <= STATISTICS_TOLERANCE,
+                "events/t " + rate);
+        assertTrue(relativeDiff(pressure, mean(reference, RunResult::pressure)) <= STATISTICS_TOLERANCE,
+                "impulse/t " + pressure);
+    }
+
+    @Test
+    void reportsEventRateAsNGrows() {
+        for (Engine engine : ENGINES) {
+            // Warm up the JIT so the first size is not penalized
+            run(engine, BENCH_N[0], 0, BENCH_EVENTS, 0);
+            for (int size : BENCH_N) {
+                RunResult r = run(engine, size, 0, BENCH_EVENTS, 0);
+                assertEquals(BENCH_EVENTS, r.events);
+                System.out.printf("%s N=%d events=%d %.0f events/s\n", engine, size, r.events,
+                        r.events / (r.nanos / 1e9));
+            }
+        }
+    }
+
+    private RunResult[] resultsOf(Engine engine) {
+        return results.computeIfAbsent(engine, e -> {
+            RunResult[] runs = new RunResult[SEEDS];
+            for (int seed = 0; seed < SEEDS; seed++)
+                runs[seed] = run(e, N, seed, EVENTS, CHECK_EVERY);
+            return runs;
+        });
+    }
+
+    // With checkEvery = 0 no checks are done, so only the simulation is timed
+    private static RunResult run(Engine engine, int n, long seed, int maxEvents, int checkEvery) {
+        Continuum continuum = new Continuum(SimulationJob.SIDE, L, n, Integer.MAX_VALUE, SimulationJob.PARTICLE_RADIUS,
+                engine.queue.get());
+        ParticleGenerator.generate(n, SimulationJob.SIDE, continuum::addParticle, SimulationJob.SPEED,
+                SimulationJob.PARTICLE_RADIUS, seed);
+        double[] impulse = new double[1];
+        continuum.setImpulseListener((value, time, wallId) -> impulse[0] += value);
+        double initialEnergy = kineticEnergy(continuum.getParticles());
+
+        long events = 0;
+        double time = 0;
+        double maxEnergyDrift = 0;
+        int overlaps = 0;
+        int escapes = 0;
+        long start = System.nanoTime();
+        Iterator<Time> iterator = continuum.iterator();
+        while (events < maxEvents && iterator.hasNext()) {
+            Time t = iterator.next();
+            time = t.time();
+            events++;
+            if (checkEvery > 0 && events % checkEvery == 0) {
+                List<Particle> particles = t.particles();
+                double drift = Math.abs(kineticEnergy(particles) - initialEnergy) / initialEnergy;
+                maxEnergyDrift = Math.max(maxEnergyDrift, drift);
+                overlaps += countOverlaps(particles);
+                for (Particle particle : particles) {
+                    if (!continuum.contains(particle, WALL_TOLERANCE))
+                        escapes++;
+                }
+            }
+        }
+        return new RunResult(events, time, impulse[0], System.nanoTime() - start, maxEnergyDrift, overlaps, escapes);
+    }
+
+    // Every mass is 1
+    private static double kineticEnergy(List<Particle> particles) {
+        double energy = 0;
+        for (Particle p : particles) {
+            energy += (p.getSpeedX() * p.getSpeedX() + p.getSpeedY() * p.getSpeedY()) / 2;
+        }
+        return energy;
+    }
+
+    private static int countOverlaps(List<Particle> particles) {
+        int overlaps = 0;
+        for (int i = 0; i < particles.size(); i++) {
+            Particle p1 = particles.get(i);
+            for (int j = i + 1; j < particles.size(); j++) {
+                Particle p2 = particles.get(j);
+                double minDistance = p1.getRadius() + p2.getRadius() - OVERLAP_TOLERANCE;
+                double dx = p1.getX() - p2.getX();
+                double dy = p1.getY() - p2.getY();
+                if (dx * dx + dy * dy < minDistance * minDistance)
+                    overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    private static double mean(RunResult[] results, ToDoubleFunction<RunResult> metric) {
+        return Arrays.stream(results).mapToDouble(metric).average().orElse(Double.NaN);
+    }
+
+    private static double relativeDiff(double value, double reference) {
+        return Math.abs(value - reference) / Math.abs(reference);
+    }
+}
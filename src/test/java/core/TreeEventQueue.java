@@ -0,0 +1,51 @@
+package core;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Event queue on a red-black tree instead of a binary heap, events at the same time are polled in insertion order.
+// Used as a second engine for ContinuumTest.
+class TreeEventQueue extends AbstractQueue<EventType> {
+    private final TreeMap<Double, ArrayDeque<EventType>> events = new TreeMap<>();
+    private int size;
+
+    @Override
+    public boolean offer(EventType event) {
+        events.computeIfAbsent(event.getT(), t -> new ArrayDeque<>()).add(event);
+        size++;
+        return true;
+    }
+
+    @Override
+    public EventType poll() {
+        Map.Entry<Double, ArrayDeque<EventType>> first = events.firstEntry();
+        if (first == null)
+            return null;
+        EventType event = first.getValue().poll();
+        if (first.getValue().isEmpty())
+            events.remove(first.getKey());
+        size--;
+        return event;
+    }
+
+    @Override
+    public EventType peek() {
+        Map.Entry<Double, ArrayDeque<EventType>> first = events.firstEntry();
+        return first == null ? null : first.getValue().peek();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Read only, in time order
+    @Override
+    public Iterator<EventType> iterator() {
+        return events.values().stream().flatMap(Collection::stream).iterator();
+    }
+}